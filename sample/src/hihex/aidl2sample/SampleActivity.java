@@ -14,10 +14,15 @@ import android.graphics.Point;
 import android.os.Bundle;
 import android.os.IBinder;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.SparseBooleanArray;
 import android.widget.GridView;
 
 public final class SampleActivity extends Activity implements ServiceConnection {
+    private static final int BURST_SIZE = 200;
+    private static final int MAX_TAKE_ATTEMPTS = 50;
+    private static final long TAKE_RETRY_DELAY_MILLIS = 10;
+
     private ISampleService1 mSampleService1;
     private ISampleService2 mSampleService2;
     private ISampleService3<CustomParcelable> mSampleService3;
@@ -128,6 +133,70 @@ public final class SampleActivity extends Activity implements ServiceConnection
             }
         });
 
+        mTestResultAdapter.addTestCase(new Predicate() {
+            @Override
+            public boolean run() throws RemoteException {
+                mSampleService1.takeStoredValuesInArrivalOrder();
+                final int[] next = {0};
+                storeBurst(0, BURST_SIZE);
+                return takeRemaining(next, BURST_SIZE);
+            }
+        });
+
+        mTestResultAdapter.addTestCase(new Predicate() {
+            @Override
+            public boolean run() throws RemoteException {
+                mSampleService1.takeStoredValuesInArrivalOrder();
+                final int[] next = {0};
+                for (int round = 0; round < 10; ++round) {
+                    storeBurst(round * BURST_SIZE / 10, BURST_SIZE / 10);
+                    if (!takeInOrder(next)) {
+                        return false;
+                    }
+                }
+                return takeRemaining(next, BURST_SIZE);
+            }
+        });
+
+        mTestResultAdapter.addTestCase(new Predicate() {
+            @Override
+            public boolean run() throws RemoteException {
+                mSampleService1.takeStoredValuesInArrivalOrder();
+                final long previous =
+                        mSampleService1.setDrainBudget(ISampleService1.Stub.DEFAULT_MAIN_THREAD_DRAIN_BUDGET);
+                try {
+                    final int[] next = {0};
+                    mSampleService1.blockMainThread(100);
+                    storeBurst(0, BURST_SIZE);
+                    if (!takeRemaining(next, BURST_SIZE)) {
+                        return false;
+                    }
+                    return mSampleService1.countBatchedStores() > 0;
+                } finally {
+                    mSampleService1.setDrainBudget(previous);
+                }
+            }
+        });
+
+        mTestResultAdapter.addTestCase(new Predicate() {
+            @Override
+            public boolean run() throws RemoteException {
+                mSampleService1.takeStoredValuesInArrivalOrder();
+                final long previous = mSampleService1.setDrainBudget(0);
+                try {
+                    final int[] next = {0};
+                    mSampleService1.blockMainThread(100);
+                    storeBurst(0, BURST_SIZE);
+                    if (!takeRemaining(next, BURST_SIZE)) {
+                        return false;
+                    }
+                    return mSampleService1.countBatchedStores() == 0;
+                } finally {
+                    mSampleService1.setDrainBudget(previous);
+                }
+            }
+        });
+
         mTestResultAdapter.addTestCase(new Predicate() {
             @Override
             public boolean run() throws RemoteException {
@@ -241,6 +310,44 @@ public final class SampleActivity extends Activity implements ServiceConnection
         });
     }
 
+    /** Store the values <code>start</code> to <code>start + size - 1</code>, one oneway call each. */
+    private void storeBurst(final int start, final int size) throws RemoteException {
+        for (int i = start; i < start + size; ++i) {
+            mSampleService1.storeValuesInMainThread(new int[] {i});
+        }
+    }
+
+    /**
+     * Take the stored values once, checking that they continue the sequence from <code>next[0]</code>. Advances
+     * <code>next[0]</code> past the taken values.
+     */
+    private boolean takeInOrder(final int[] next) throws RemoteException {
+        for (final int value : mSampleService1.takeStoredValuesInArrivalOrder()) {
+            if (value != next[0]) {
+                return false;
+            }
+            ++next[0];
+        }
+        return true;
+    }
+
+    /**
+     * Take until all values up to <code>end - 1</code> are seen in order. Binder may deliver a synchronous call ahead
+     * of oneway calls sent before it, so a single call is not guaranteed to see the whole burst.
+     */
+    private boolean takeRemaining(final int[] next, final int end) throws RemoteException {
+        for (int attempt = 0; attempt < MAX_TAKE_ATTEMPTS; ++attempt) {
+            if (!takeInOrder(next)) {
+                return false;
+            }
+            if (next[0] == end) {
+                return true;
+            }
+            SystemClock.sleep(TAKE_RETRY_DELAY_MILLIS);
+        }
+        return false;
+    }
+
     private void addTestCasesForSampleService2() {
         mTestResultAdapter.addTestCase(new Predicate() {
             @Override
@@ -7,13 +7,27 @@ import java.util.UUID;
 import android.app.Service;
 import android.content.Intent;
 import android.graphics.Point;
+import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
 import android.os.RemoteException;
+import android.os.SystemClock;
 import android.util.SparseBooleanArray;
 
 public final class SampleService1 extends Service {
     /*internal*/final SparseBooleanArray mIntegerStore = new SparseBooleanArray();
+    /*internal*/final ArrayList<Integer> mArrivalOrder = new ArrayList<Integer>();
+    /*internal*/final Handler mHandler = new Handler(Looper.getMainLooper());
+    /*internal*/boolean mMarkerPending;
+    /*internal*/int mBatchedStores;
+
+    /** Posted after every store to detect whether the next store runs in a later looper message. */
+    /*internal*/final Runnable mMarker = new Runnable() {
+        @Override
+        public void run() {
+            mMarkerPending = false;
+        }
+    };
 
     private final ISampleService1.Stub mBinder = new ISampleService1.Stub() {
         @Override
@@ -34,7 +48,13 @@ public final class SampleService1 extends Service {
             }
             for (final int value : array) {
                 mIntegerStore.append(value, true);
+                mArrivalOrder.add(value);
+            }
+            if (mMarkerPending) {
+                ++mBatchedStores;
             }
+            mMarkerPending = true;
+            mHandler.post(mMarker);
         }
 
         @Override
@@ -61,6 +81,35 @@ public final class SampleService1 extends Service {
             return result;
         }
 
+        @Override
+        public int[] takeStoredValuesInArrivalOrder() throws RemoteException {
+            final int size = mArrivalOrder.size();
+            final int[] result = new int[size];
+            for (int i = 0; i < size; ++i) {
+                result[i] = mArrivalOrder.get(i);
+            }
+            mArrivalOrder.clear();
+            return result;
+        }
+
+        @Override
+        public long setDrainBudget(final long millis) throws RemoteException {
+            final long previous = ISampleService1.Stub.getMainThreadDrainBudget();
+            ISampleService1.Stub.setMainThreadDrainBudget(millis);
+            mBatchedStores = 0;
+            return previous;
+        }
+
+        @Override
+        public int countBatchedStores() throws RemoteException {
+            return mBatchedStores;
+        }
+
+        @Override
+        public void blockMainThread(final long millis) throws RemoteException {
+            SystemClock.sleep(millis);
+        }
+
         @Override
         public void swapXy(final CustomParcelable cp, final Point point) throws RemoteException {
             int temp = cp.x;